@@ -51,6 +51,11 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
     boolean updated = false;
 
+    //The iteration count of every pixel in the current view. Kept between repaints, and only thrown away when the view changes,
+    //so changing the shading or loading a saved session doesn't recalculate anything. Pressing s saves it, and l loads it back.
+    Snapshot snapshot;
+    String snapshotPath = "mandelbrot.snap";
+
     /**
      * Sets up the initial size of the JFrame, as well as adds the KeyListener and starts the main loop.
      * Instantiate this when you're ready to begin using Mandelbrot.
@@ -136,10 +141,15 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
         yDist = Math.abs(yCenter - minY);
 
         //Updates the amount of iterations to perform based on the current level of resoution.
-        numIterations = 4 * (int)Math.pow(2, resolutionLevel);   
+        numIterations = Snapshot.iterationsFor(resolutionLevel);   
 
         magn = (long)(2/xDist);
 
+        //Starts a fresh iteration field if the view has changed since the last one was calculated (or loaded).
+        if (snapshot == null || !snapshot.matches(minX, maxX, minY, maxY, resolutionLevel, getWidth(), getHeight())) {
+            snapshot = new Snapshot(minX, maxX, minY, maxY, resolutionLevel, shading, getWidth(), getHeight());
+        }
+
         //Prints out the current window/resolution details in a (hopefully) helpful manner. Will possibly be added to the graphing area in a debug menu.
         //System.out.println("X window: " + minX + " to " + maxX + " || " + "Y window: " + minY + " to " + maxY + " || " + "X incr.: " + xIncrement + " || " + "Y incr.: " + yIncrement);           
         //System.out.println("Center = " + xCenter + ", " + yCenter + " || Magnification (apr.): " + magn + " || Iterations: " + numIterations + " || Shade style: " + shading);
@@ -180,9 +190,7 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
         for(int i = 0; i < this.getWidth(); i++) {
             for(int j = 0; j < this.getHeight(); j++) {
-                ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa
-
-                if (Logic.greyTest(temp, numIterations)) {
+                if (snapshot.get(i, j) == -1) {
                     g2d.drawLine(i, j, i, j); //Draws this pixel as black
                 }
             }
@@ -195,9 +203,7 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
     private void drawColorAlgoI(Graphics2D g2d, Color c) {
         for(int i = 0; i < this.getWidth(); i++) {
             for(int j = 0; j < this.getHeight(); j++) {
-                ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                int num = Logic.colorTest(temp, numIterations); //The number of iterations                
+                int num = snapshot.get(i, j); //The number of iterations
 
                 int numItTrunc = numIterations;
 
@@ -235,9 +241,7 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
             for(int i = 0; i < this.getWidth(); i++) {
                 for(int j = 0; j < this.getHeight(); j++) {
 
-                    ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                    int num = Logic.colorTest(temp, numIterations); //The number of iterations                
+                    int num = snapshot.get(i, j); //The number of iterations
 
                     if (num == -1) {
                         g2d.setColor(Color.BLACK); //The actual Mandelbrot set is black
@@ -260,9 +264,7 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
             for(int i = 0; i < this.getWidth(); i++) {
                 for(int j = 0; j < this.getHeight(); j++) {
-                    ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                    int num = Logic.colorTest(temp, numIterations); //The number of iterations                 
+                    int num = snapshot.get(i, j); //The number of iterations
 
                     if (num == -1) {
                         g2d.setColor(Color.BLACK);
@@ -284,9 +286,7 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
     private void drawWater(Graphics2D g2d) {
         for(int i = 0; i < this.getWidth(); i++) {
             for(int j = 0; j < this.getHeight(); j++) {
-                ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                int num = Logic.colorTest(temp, numIterations); //The number of iterations    
+                int num = snapshot.get(i, j); //The number of iterations
 
                 if (num == -1) {
                     g2d.setColor(Color.BLACK);
@@ -301,13 +301,14 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
     private void drawFire(Graphics2D g2d) {
         //To fix this, remove all the thread code; leave only one double-nested for loop; make it go from 0 to getWidth() and 0 to getHeight().
+        //The threads keep running after update() returns, so they hold on to this frame's field rather than whatever snapshot is current later.
+        final Snapshot current = snapshot;
+
         new Thread() {
             public void run() {        
-                for(int i = 0; i < getWidth() / 2; i++) {
-                    for(int j = 0; j < getHeight() / 2; j++) {
-                        ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                        int num = Logic.colorTest(temp, numIterations); //The number of iterations    
+                for(int i = 0; i < current.width / 2; i++) {
+                    for(int j = 0; j < current.height / 2; j++) {
+                        int num = current.get(i, j); //The number of iterations
 
                         if (num == -1) {
                             g2d.setColor(Color.BLACK);
@@ -329,11 +330,9 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
         new Thread() {
             public void run() {        
-                for(int i = getWidth() / 2; i < getWidth(); i++) {
-                    for(int j = 0; j < getHeight() / 2; j++) {
-                        ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                        int num = Logic.colorTest(temp, numIterations); //The number of iterations    
+                for(int i = current.width / 2; i < current.width; i++) {
+                    for(int j = 0; j < current.height / 2; j++) {
+                        int num = current.get(i, j); //The number of iterations
 
                         if (num == -1) {
                             g2d.setColor(Color.BLACK);
@@ -355,11 +354,9 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
         new Thread() {
             public void run() {        
-                for(int i = 0; i < getWidth() / 2; i++) {
-                    for(int j = getHeight() / 2; j < getHeight(); j++) {
-                        ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                        int num = Logic.colorTest(temp, numIterations); //The number of iterations    
+                for(int i = 0; i < current.width / 2; i++) {
+                    for(int j = current.height / 2; j < current.height; j++) {
+                        int num = current.get(i, j); //The number of iterations
 
                         if (num == -1) {
                             g2d.setColor(Color.BLACK);
@@ -381,11 +378,9 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
 
         new Thread() {
             public void run() {        
-                for(int i = getWidth() / 2; i < getWidth(); i++) {
-                    for(int j = getHeight() / 2; j < getHeight(); j++) {
-                        ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY); //Was (i-this.getHeight()/2)*xIncrement and vice versa 
-
-                        int num = Logic.colorTest(temp, numIterations); //The number of iterations    
+                for(int i = current.width / 2; i < current.width; i++) {
+                    for(int j = current.height / 2; j < current.height; j++) {
+                        int num = current.get(i, j); //The number of iterations
 
                         if (num == -1) {
                             g2d.setColor(Color.BLACK);
@@ -471,6 +466,48 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
         update();        
     }    
 
+    /**
+     * Saves the current view and its iteration field to snapshotPath, so the session can be restored later with loadSnapshot().
+     */
+    public void saveSnapshot() {
+        try {
+            snapshot.shading = shading;
+            snapshot.save(snapshotPath);
+            System.out.println("Saved snapshot to " + snapshotPath);
+        }
+        catch (java.io.IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Restores the view saved in snapshotPath and displays it straight from the saved iteration field, without recalculating.
+     */
+    public void loadSnapshot() {
+        try {
+            Snapshot loaded = Snapshot.load(snapshotPath);
+
+            minX = loaded.minX;
+            maxX = loaded.maxX;
+            minY = loaded.minY;
+            maxY = loaded.maxY;
+            resolutionLevel = loaded.resolutionLevel;
+            shading = loaded.shading;
+
+            snapshot = loaded;
+            setSize(loaded.width, loaded.height);
+            if (getWidth() != loaded.width || getHeight() != loaded.height) {
+                System.out.println("Window is " + getWidth() + "x" + getHeight() + " instead of the snapshot's " + loaded.width + "x" + loaded.height
+                    + "; recalculating instead of using the saved field");
+            }
+            update();
+            updated = true;
+        }
+        catch (java.io.IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     @Override
     public void keyReleased(KeyEvent key) {
         int k = key.getKeyCode();
@@ -508,6 +545,10 @@ public class Drawer extends JFrame implements Runnable, KeyListener {
             shading = k-48; updated = true;//Handles the 0-9 keys
         } else if (k==72 /*h*/) {
             debug = !debug; updated = true;
+        } else if (k==83 /*s*/) {
+            saveSnapshot();
+        } else if (k==76 /*l*/) {
+            loadSnapshot();
         } else if (k==KeyEvent.VK_ESCAPE) {
             setVisible(false); try { Thread.sleep(2000); } catch(Exception f) {} finally { setVisible(true);}
         } else if (k==KeyEvent.VK_ALT || k==KeyEvent.VK_TAB) {
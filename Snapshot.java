@@ -0,0 +1,250 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * A saved view of the Mandelbrot set: the viewing window, resolution and shading, along with the iteration count of every pixel.
+ * Snapshots let you get back to a deep location without zooming there again, and without redoing any of the calculations.
+ * This class doesn't touch the screen at all, so it can be used from headless tools as well as from the Drawer.
+ *
+ * The file is a small header followed by the iteration field, one column at a time (the same order the Drawer draws in).
+ * Neighboring pixels usually have close iteration counts, so every value is stored as the difference from the one before it,
+ * zigzag-encoded so that small negative differences stay small, and then written as a varint (7 bits per byte).
+ * The whole file is read into memory at once instead of memory-mapping it, since a mapped file stays locked on Windows until the
+ * mapping is garbage collected, and that would stop you from saving over a snapshot you just loaded.
+ */
+public class Snapshot {
+    //Marks the start of every snapshot file ("MSNP"), followed by the format version.
+    static final int MAGIC = 0x4D534E50;
+    static final int VERSION = 1;
+
+    //Placeholder for a pixel that hasn't been calculated yet. Real values are -1 (in the set) or 0 and up.
+    static final int UNKNOWN = Integer.MIN_VALUE;
+
+    //The viewing window, same meaning as in the Drawer.
+    double minX;
+    double maxX;
+    double minY;
+    double maxY;
+
+    int resolutionLevel;
+    int shading;
+
+    //Size of the field in pixels.
+    int width;
+    int height;
+
+    //The result of Logic.colorTest for every pixel, stored column by column: the pixel (i, j) is at field[i * height + j].
+    int[] field;
+
+    //Worked out once from the fields above, since every uncalculated pixel needs them.
+    private final int numIterations;
+    private final double xIncrement;
+    private final double yIncrement;
+
+    /**
+     * Creates an empty snapshot of the given view. Every pixel starts out as UNKNOWN until it's calculated or filled in.
+     */
+    public Snapshot(double minX, double maxX, double minY, double maxY, int resolutionLevel, int shading, int width, int height) {
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.resolutionLevel = resolutionLevel;
+        this.shading = shading;
+        this.width = width;
+        this.height = height;
+
+        numIterations = iterationsFor(resolutionLevel);
+        xIncrement = Math.abs(maxX - minX) / (double)width;
+        yIncrement = Math.abs(maxY - minY) / (double)height;
+
+        field = new int[width * height];
+        java.util.Arrays.fill(field, UNKNOWN);
+    }
+
+    /**
+     * The number of iterations performed per pixel at the given resolution level: 4 * 2^resolutionLevel. The Drawer uses this too.
+     */
+    public static int iterationsFor(int resolutionLevel) {
+        return 4 * (int)Math.pow(2, resolutionLevel);
+    }
+
+    /**
+     * The number of iterations per pixel for this snapshot's resolution level.
+     */
+    public int numIterations() {
+        return numIterations;
+    }
+
+    /**
+     * Tells you whether this snapshot's field is valid for the given view. Shading doesn't matter, since it doesn't change the iteration counts.
+     */
+    public boolean matches(double minX, double maxX, double minY, double maxY, int resolutionLevel, int width, int height) {
+        return this.minX == minX && this.maxX == maxX && this.minY == minY && this.maxY == maxY
+            && this.resolutionLevel == resolutionLevel && this.width == width && this.height == height;
+    }
+
+    /**
+     * Returns the iteration count at pixel (i, j), calculating and remembering it first if it isn't known yet.
+     * @return How many iterations it takes for the point to escape, or -1 if it's in the set.
+     */
+    public int get(int i, int j) {
+        int index = i * height + j;
+        int num = field[index];
+
+        if (num == UNKNOWN) {
+            ComplexNumber temp = new ComplexNumber((i*xIncrement) + minX, (j*yIncrement) + minY);
+
+            num = Logic.colorTest(temp, numIterations);
+            field[index] = num;
+        }
+
+        return num;
+    }
+
+    /**
+     * Calculates every pixel that isn't known yet. Called before saving so the file always holds a complete field.
+     */
+    public void computeAll() {
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < height; j++) {
+                get(i, j);
+            }
+        }
+    }
+
+    /**
+     * Writes this snapshot to the given file, calculating any missing pixels first.
+     * The data goes to a temporary file that then replaces the old one, so a failed save never leaves a half-written snapshot behind.
+     */
+    public void save(String path) throws IOException {
+        computeAll();
+
+        Path target = Paths.get(path);
+        Path temp = Paths.get(path + ".tmp");
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeDouble(minX);
+            out.writeDouble(maxX);
+            out.writeDouble(minY);
+            out.writeDouble(maxY);
+            out.writeInt(resolutionLevel);
+            out.writeInt(shading);
+            out.writeInt(width);
+            out.writeInt(height);
+
+            int previous = 0;
+            for (int k = 0; k < field.length; k++) {
+                int delta = field[k] - previous;
+                writeVarInt(out, (delta << 1) ^ (delta >> 31)); //Zigzag: 0, -1, 1, -2, ... become 0, 1, 2, 3, ...
+                previous = field[k];
+            }
+        } catch (IOException e) {
+            out.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        out.close();
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a snapshot from the given file. The whole file is read into memory first, then decoded from there.
+     * @throws IOException if the file can't be read, isn't a snapshot, or is damaged.
+     */
+    public static Snapshot load(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) { throw new IOException("Snapshot file too large: " + path); }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int)channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {}
+            buffer.flip();
+
+            try {
+                if (buffer.getInt() != MAGIC) { throw new IOException("Not a snapshot file: " + path); }
+                int version = buffer.get();
+                if (version != VERSION) { throw new IOException("Unsupported snapshot version " + version + ": " + path); }
+
+                double minX = buffer.getDouble();
+                double maxX = buffer.getDouble();
+                double minY = buffer.getDouble();
+                double maxY = buffer.getDouble();
+                int resolutionLevel = buffer.getInt();
+                int shading = buffer.getInt();
+                int width = buffer.getInt();
+                int height = buffer.getInt();
+
+                //Every pixel takes at least one byte, so a size bigger than what's left of the file can't be right.
+                if (width <= 0 || height <= 0 || (long)width * height > buffer.remaining()) {
+                    throw new IOException("Corrupt snapshot size " + width + "x" + height + ": " + path);
+                }
+
+                Snapshot snapshot = new Snapshot(minX, maxX, minY, maxY, resolutionLevel, shading, width, height);
+
+                int previous = 0;
+                for (int k = 0; k < snapshot.field.length; k++) {
+                    int zigzag = readVarInt(buffer);
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (previous < -1 || previous >= snapshot.numIterations) { throw new IOException("Corrupt snapshot field"); }
+                    snapshot.field[k] = previous;
+                }
+
+                return snapshot;
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot file: " + path);
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    //Writes an unsigned int 7 bits at a time, lowest bits first; the top bit of each byte says whether more bytes follow.
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    //Reads back a value written by writeVarInt.
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) { return value; }
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+
+    public String toString() {
+        return "X window: " + minX + " to " + maxX + " || Y window: " + minY + " to " + maxY
+            + " || Iterations: " + numIterations() + " || Shade style: " + shading + " || Size: " + width + "x" + height;
+    }
+
+    /**
+     * Prints a summary of each snapshot file given, without opening a window. Useful for checking saved sessions from the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        for (String path : args) {
+            Snapshot snapshot = load(path);
+
+            int inSet = 0;
+            for (int num : snapshot.field) {
+                if (num == -1) { inSet++; }
+            }
+
+            System.out.println(path + ": " + snapshot);
+            System.out.println("Pixels in the set: " + inSet + " of " + snapshot.field.length);
+        }
+    }
+}